@@ -0,0 +1,233 @@
+/*
+    ExhaustiveVerification.java
+
+    Copyright (c) 2020, Martin Knoblauch Revuelta
+    See accompanying LICENSE
+
+    https://github.com/mkrevuelta/JIntDatesConverter
+*/
+
+package com.github.mkrevuelta.JIntDatesConverter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+/**
+ * Round-trips every Excel&reg; day from 0 to Integer.MAX_VALUE
+ * through {@link DatesConverter DatesConverter}, both as
+ * {@link DatesConverter.DateOnly DateOnly} and as string, and
+ * cross-checks the dates against {@link LocalDate LocalDate}.
+ * <p>
+ * This takes a long time, so it is not part of the regular test
+ * run. It lives in its own source root, which only the
+ * <code>exhaustive</code> profile adds, because it needs Java 8.
+ * Run it with <code>mvn test -P exhaustive</code>. These
+ * system properties narrow or tune the run:
+ * <ul>
+ * <li> <b>verify.first</b>, <b>verify.last</b>: range of days
+ *      (default: 0 and Integer.MAX_VALUE)
+ * <li> <b>verify.threads</b>: number of worker threads
+ *      (default: number of available processors)
+ * </ul>
+ */
+public class ExhaustiveVerification
+{
+    private static final int epochExcelDay = 25569;  // 1970-01-01
+    private static final int lotusExcelDay = 60;     // 1900-02-29
+
+    private static final long chunkSize = 1 << 20;
+    private static final int maxReportedMismatches = 100;
+
+    private final List<String> mismatches = new ArrayList<String> ();
+    private final AtomicLong mismatchCount = new AtomicLong ();
+
+    @Test
+    public void doTest () throws InterruptedException
+    {
+        final long first = Long.getLong ("verify.first", 0);
+        final long last = Long.getLong ("verify.last", Integer.MAX_VALUE);
+        int threadCount = Integer.getInteger (
+                            "verify.threads",
+                            Runtime.getRuntime().availableProcessors());
+
+        Assert.assertTrue ("verify.first must be from 0 to verify.last",
+                           0 <= first && first <= last);
+        Assert.assertTrue ("verify.last must be up to Integer.MAX_VALUE",
+                           last <= Integer.MAX_VALUE);
+        Assert.assertTrue ("verify.threads must be greater than 0",
+                           threadCount > 0);
+
+        final AtomicLong nextChunk = new AtomicLong (first);
+        final long[] checkedDays = new long[threadCount];
+        final long[] elapsedNanos = new long[threadCount];
+        Thread[] threads = new Thread[threadCount];
+
+        for (int t=0; t<threadCount; t++)
+        {
+            final int worker = t;
+            threads[t] = new Thread ("verify-" + t)
+            {
+                @Override
+                public void run ()
+                {
+                    long start = System.nanoTime ();
+                    long checked = 0;
+
+                    for (;;)
+                    {
+                        long from = nextChunk.getAndAdd (chunkSize);
+                        if (from > last)
+                            break;
+
+                        long to = Math.min (last, from + chunkSize - 1);
+
+                        for (long day=from; day<=to; day++)
+                            checkDay ((int)day);
+
+                        checked += to - from + 1;
+                    }
+
+                    checkedDays[worker] = checked;
+                    elapsedNanos[worker] = System.nanoTime () - start;
+                }
+            };
+        }
+
+        long start = System.nanoTime ();
+
+        for (int t=0; t<threadCount; t++)
+            threads[t].start ();
+
+        for (int t=0; t<threadCount; t++)
+            threads[t].join ();
+
+        long elapsed = System.nanoTime () - start;
+
+        // Report
+
+        long totalDays = 0;
+        for (int t=0; t<threadCount; t++)
+        {
+            System.out.println (String.format (
+                    "Thread %3d: %,14d days in %9.1f s (%,12.0f days/s)",
+                    t, checkedDays[t], elapsedNanos[t] / 1e9,
+                    daysPerSecond (checkedDays[t], elapsedNanos[t])));
+            totalDays += checkedDays[t];
+        }
+
+        System.out.println (String.format (
+                "Total:      %,14d days in %9.1f s (%,12.0f days/s)" +
+                " with %d threads, %,d mismatches",
+                totalDays, elapsed / 1e9,
+                daysPerSecond (totalDays, elapsed),
+                threadCount, mismatchCount.get()));
+
+        synchronized (mismatches)
+        {
+            for (String mismatch : mismatches)
+                System.out.println (mismatch);
+        }
+
+        Assert.assertEquals ("Number of days checked",
+                             last - first + 1, totalDays);
+
+        if (mismatchCount.get () != 0)
+            Assert.fail (mismatchCount.get () + " mismatches found");
+    }
+
+    private static double daysPerSecond (long days, long nanos)
+    {
+        return nanos > 0 ? days * 1e9 / nanos : 0;
+    }
+
+    private void checkDay (int excelDay)
+    {
+        DatesConverter.DateOnly date =
+                DatesConverter.getDateFromExcelDay (excelDay);
+
+        // Reference date from java.time, adjusted to 1900 and Lotus123
+
+        int year, month, day;
+
+        if (excelDay == 0)
+        {
+            year = 1900; month = 1; day = 0;
+        }
+        else if (excelDay == lotusExcelDay)
+        {
+            year = 1900; month = 2; day = 29;
+        }
+        else
+        {
+            LocalDate reference = LocalDate.ofEpochDay (
+                    (long)excelDay - epochExcelDay +
+                    (excelDay < lotusExcelDay ? 1 : 0));
+
+            year = reference.getYear ();
+            month = reference.getMonthValue ();
+            day = reference.getDayOfMonth ();
+        }
+
+        if (date.year != year || date.month != month || date.day != day)
+            reportMismatch (excelDay, "getDateFromExcelDay() makes " +
+                            format (date.year, date.month, date.day) +
+                            " instead of " + format (year, month, day));
+
+        if (date.isValid () != (excelDay != 0))
+            reportMismatch (excelDay, "isValid() returns " +
+                            date.isValid ());
+
+        int computedExcelDay = DatesConverter.getExcelDayFromDate (date);
+
+        if (computedExcelDay != excelDay)
+            reportMismatch (excelDay, "getExcelDayFromDate() returns " +
+                            computedExcelDay);
+
+        // String forms
+
+        String string = DatesConverter
+                .getString_YYYY_dash_MM_dash_DD_FromExcelDay (excelDay);
+
+        if ( ! string.equals (format (year, month, day)))
+            reportMismatch (excelDay, "string is " + string);
+
+        Integer parsedExcelDay = DatesConverter
+                .getExcelDayFromString_YYYY_dash_MM_dash_DD (string, null);
+
+        if (parsedExcelDay == null || parsedExcelDay != excelDay)
+            reportMismatch (excelDay, string + " is parsed as " +
+                            parsedExcelDay);
+    }
+
+    // Same as "%04d-%02d-%02d", without the cost of String.format()
+
+    private static String format (int year, int month, int day)
+    {
+        StringBuilder sb = new StringBuilder (16);
+
+        for (int digits=1000; digits>1 && year<digits; digits/=10)
+            sb.append ('0');
+
+        sb.append (year).append (month < 10 ? "-0" : "-").append (month)
+                        .append (day < 10 ? "-0" : "-").append (day);
+
+        return sb.toString ();
+    }
+
+    private void reportMismatch (int excelDay, String message)
+    {
+        mismatchCount.incrementAndGet ();
+
+        synchronized (mismatches)
+        {
+            if (mismatches.size () < maxReportedMismatches)
+                mismatches.add ("Mismatch at day " + excelDay + ": " +
+                                message);
+        }
+    }
+}
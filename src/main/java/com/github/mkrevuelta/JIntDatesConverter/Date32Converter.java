@@ -0,0 +1,416 @@
+/*
+    Date32Converter.java
+
+    Copyright (c) 2020, Martin Knoblauch Revuelta
+    See accompanying LICENSE
+
+    https://github.com/mkrevuelta/JIntDatesConverter
+*/
+
+package com.github.mkrevuelta.JIntDatesConverter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class translates whole columns of Excel&reg; dates to and
+ * from the Apache Arrow <b>Date32</b> layout, which is also the
+ * physical layout of the Parquet <b>DATE</b> type.
+ * <p>
+ * A Date32 column is made of two buffers:
+ * <ul>
+ * <li> A <b>data</b> buffer with one little-endian 32 bits
+ *      integer per value: the number of days since 1970-01-01.
+ * <li> An optional <b>validity</b> bitmap with one bit per value,
+ *      least significant bit first. A bit set to 1 means that
+ *      the value is present. A bit set to 0 means null.
+ * </ul>
+ * <p>
+ * No Arrow library is needed. The buffers are plain
+ * {@link ByteBuffer ByteBuffer} objects. Value number 0 is at the
+ * current position of the data buffer, and its validity bit is
+ * the least significant bit of the byte at the current position
+ * of the validity buffer. The positions, limits and byte orders of
+ * the buffers passed in are never modified.
+ * <p>
+ * The translation follows the same rules as
+ * {@link DatesConverter DatesConverter}:
+ * <ul>
+ * <li> Excel&reg; day <b>0</b> (1900-01-00, "no date") and
+ *      negative days are translated as null.
+ * <li> Excel&reg; day <b>60</b> (1900-02-29, the Lotus123 bug)
+ *      does not exist in the real calendar. It is translated as
+ *      null too.
+ * <li> Date32 nulls, dates before 1900-01-01 and dates after
+ *      5881510-07-10 (day Integer.MAX_VALUE) are translated as
+ *      Excel&reg; day <b>0</b>.
+ * </ul>
+ * <p>
+ * Every conversion makes a single sequential sweep over the
+ * values and returns the number of values that were translated
+ * as null or as day 0. Writing Date32 without validity bitmap
+ * takes a first read-only sweep to make sure there are no nulls.
+ * <p>
+ * The sizes of the arrays and buffers are checked before anything
+ * is written. A conversion either completes or throws
+ * IllegalArgumentException leaving its destination untouched, so
+ * a column is never left half converted.
+ *
+ * @author Mart&iacute;n Knoblauch Revuelta
+ * @version 1
+ */
+public abstract class Date32Converter
+{
+    private Date32Converter()  // This is an abstract class!
+    {}                         // Make it somehow final too
+
+    private static final int epochExcelDay = 25569;  // 1970-01-01
+    private static final int lotusExcelDay = 60;     // 1900-02-29
+
+    // Date32 value of 1900-01-01 and 1900-03-01
+    private static final int minEpochDay = 1 - epochExcelDay + 1;
+    private static final int lotusEpochDay = lotusExcelDay + 1 -
+                                             epochExcelDay;
+
+    private static final int maxEpochDay =
+            Integer.MAX_VALUE - epochExcelDay;
+
+    private static final int invalidEpochDay = Integer.MIN_VALUE;
+
+    private static int getEpochDayFromExcelDay (int excelDay)
+    {
+        if (excelDay > lotusExcelDay)
+            return excelDay - epochExcelDay;
+
+        if (excelDay < 1 || excelDay == lotusExcelDay)
+            return invalidEpochDay;
+
+        return excelDay - epochExcelDay + 1;  // Embrace Lotus123 bug
+    }
+
+    private static int getExcelDayFromEpochDay (int epochDay)
+    {
+        if (epochDay >= lotusEpochDay)
+            return epochDay > maxEpochDay ? 0 :
+                                            epochDay + epochExcelDay;
+
+        if (epochDay < minEpochDay)
+            return 0;
+
+        return epochDay + epochExcelDay - 1;  // Embrace Lotus123 bug
+    }
+
+    private static ByteBuffer littleEndian (ByteBuffer buffer)
+    {
+        return buffer.duplicate().order (ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void checkSizes (
+            int length,
+            ByteBuffer data,
+            ByteBuffer validity)
+    {
+        if (length < 0)
+            throw new IllegalArgumentException (
+                    "Negative length: " + length);
+
+        if (length * 4L > data.remaining())
+            throw new IllegalArgumentException (
+                    "Data buffer too short for " + length +
+                    " values: " + data.remaining() + " bytes");
+
+        if (validity != null && (length + 7L) / 8 > validity.remaining())
+            throw new IllegalArgumentException (
+                    "Validity bitmap too short for " + length +
+                    " values: " + validity.remaining() + " bytes");
+    }
+
+    private static void checkSizes (
+            int[] excelDays,
+            int offset,
+            int length,
+            ByteBuffer data,
+            ByteBuffer validity)
+    {
+        checkSizes (length, data, validity);
+
+        if (offset < 0 || (long)offset + length > excelDays.length)
+            throw new IllegalArgumentException (
+                    "Invalid range of " + length + " values from " +
+                    offset + " in an array of " + excelDays.length);
+    }
+
+    private static void checkNoNulls (int excelDay)
+    {
+        if (getEpochDayFromExcelDay (excelDay) == invalidEpochDay)
+            throw new IllegalArgumentException (
+                    "Excel day " + excelDay + " has no Date32 " +
+                    "equivalent and there is no validity bitmap");
+    }
+
+    /**
+     * This function writes a column of Excel&reg; day numbers as
+     * a Date32 data buffer and validity bitmap.
+     * <p>
+     * Values that have no Date32 equivalent (day 0, day 60 and
+     * negative days) are written as 0 in the data buffer and
+     * flagged as null in the validity bitmap. Validity bits beyond
+     * {@code length} are preserved.
+     * <p>
+     * Arrow only allows a column without validity bitmap when it
+     * has no nulls. Thus, if {@code validity} is <code>null</code>,
+     * all the values must have a Date32 equivalent.
+     *
+     * @param excelDays source array of Excel&reg; day numbers
+     * @param offset index of the first value in {@code excelDays}
+     * @param length number of values to convert
+     * @param data destination Date32 data buffer, with room for
+     *             {@code length} 32 bits values
+     * @param validity destination validity bitmap, with room for
+     *                 {@code length} bits, or <code>null</code> if
+     *                 the column has no nulls
+     * @return the number of values written as null
+     * @throws IllegalArgumentException if the range of
+     *         {@code excelDays} or the room in the buffers are not
+     *         enough for {@code length} values, or if
+     *         {@code validity} is <code>null</code> and a value
+     *         has no Date32 equivalent. Nothing is written then
+     * @see #toExcelDays
+     */
+    public static int fromExcelDays (
+            int[] excelDays,
+            int offset,
+            int length,
+            ByteBuffer data,
+            ByteBuffer validity)
+    {
+        checkSizes (excelDays, offset, length, data, validity);
+
+        if (validity == null)
+            for (int i=0; i<length; i++)
+                checkNoNulls (excelDays[offset+i]);
+
+        ByteBuffer out = littleEndian (data);
+        int outPos = out.position();
+        int nulls = 0;
+
+        for (int i=0; i<length; i+=8)
+        {
+            int chunk = Math.min (8, length-i);
+            int bits = 0;
+
+            for (int j=0; j<chunk; j++)
+            {
+                int epochDay = getEpochDayFromExcelDay (
+                                    excelDays[offset+i+j]);
+
+                if (epochDay == invalidEpochDay)
+                {
+                    epochDay = 0;
+                    nulls ++;
+                }
+                else
+                    bits |= 1 << j;
+
+                out.putInt (outPos + (i+j)*4, epochDay);
+            }
+
+            if (validity != null)
+                putValidityByte (validity, i, chunk, bits);
+        }
+
+        return nulls;
+    }
+
+    /**
+     * This function reads a column of Excel&reg; day numbers from
+     * a Date32 data buffer and validity bitmap.
+     * <p>
+     * Null values and dates outside of the range supported by
+     * {@link DatesConverter DatesConverter} are stored as day 0.
+     *
+     * @param data source Date32 data buffer
+     * @param validity source validity bitmap, or <code>null</code>
+     *                 if all the values are present
+     * @param excelDays destination array of Excel&reg; day numbers
+     * @param offset index of the first value in {@code excelDays}
+     * @param length number of values to convert
+     * @return the number of values stored as day 0
+     * @throws IllegalArgumentException if the buffers do not hold
+     *         {@code length} values or the range of
+     *         {@code excelDays} has no room for them. Nothing is
+     *         written then
+     * @see #fromExcelDays
+     */
+    public static int toExcelDays (
+            ByteBuffer data,
+            ByteBuffer validity,
+            int[] excelDays,
+            int offset,
+            int length)
+    {
+        checkSizes (excelDays, offset, length, data, validity);
+
+        ByteBuffer in = littleEndian (data);
+        int inPos = in.position();
+        int zeros = 0;
+
+        for (int i=0; i<length; i+=8)
+        {
+            int chunk = Math.min (8, length-i);
+            int bits = validity != null ? getValidityByte (validity, i) :
+                                          0xFF;
+
+            for (int j=0; j<chunk; j++)
+            {
+                int excelDay = (bits & (1 << j)) != 0 ?
+                        getExcelDayFromEpochDay (
+                            in.getInt (inPos + (i+j)*4)) :
+                        0;
+
+                if (excelDay == 0)
+                    zeros ++;
+
+                excelDays[offset+i+j] = excelDay;
+            }
+        }
+
+        return zeros;
+    }
+
+    /**
+     * This function rebases, in place, a buffer of little-endian
+     * 32 bits Excel&reg; day numbers into a Date32 data buffer.
+     * The validity bitmap is written as in
+     * {@link #fromExcelDays fromExcelDays()}.
+     *
+     * @param buffer buffer holding {@code length} Excel&reg; day
+     *               numbers, which are overwritten with their
+     *               Date32 values
+     * @param validity destination validity bitmap, with room for
+     *                 {@code length} bits, or <code>null</code> if
+     *                 the column has no nulls
+     * @param length number of values to convert
+     * @return the number of values written as null
+     * @throws IllegalArgumentException if the room in the buffers
+     *         is not enough for {@code length} values, or if
+     *         {@code validity} is <code>null</code> and a value
+     *         has no Date32 equivalent. Nothing is written then
+     * @see #fromExcelDays
+     */
+    public static int fromExcelDaysInPlace (
+            ByteBuffer buffer,
+            ByteBuffer validity,
+            int length)
+    {
+        checkSizes (length, buffer, validity);
+
+        ByteBuffer io = littleEndian (buffer);
+        int ioPos = io.position();
+        int nulls = 0;
+
+        if (validity == null)
+            for (int i=0; i<length; i++)
+                checkNoNulls (io.getInt (ioPos + i*4));
+
+        for (int i=0; i<length; i+=8)
+        {
+            int chunk = Math.min (8, length-i);
+            int bits = 0;
+
+            for (int j=0; j<chunk; j++)
+            {
+                int index = ioPos + (i+j)*4;
+                int epochDay = getEpochDayFromExcelDay (io.getInt (index));
+
+                if (epochDay == invalidEpochDay)
+                {
+                    epochDay = 0;
+                    nulls ++;
+                }
+                else
+                    bits |= 1 << j;
+
+                io.putInt (index, epochDay);
+            }
+
+            if (validity != null)
+                putValidityByte (validity, i, chunk, bits);
+        }
+
+        return nulls;
+    }
+
+    /**
+     * This function rebases, in place, a Date32 data buffer into a
+     * buffer of little-endian 32 bits Excel&reg; day numbers.
+     * Nulls and out of range dates are handled as in
+     * {@link #toExcelDays toExcelDays()}.
+     *
+     * @param buffer Date32 data buffer holding {@code length}
+     *               values, which are overwritten with their
+     *               Excel&reg; day numbers
+     * @param validity source validity bitmap, or <code>null</code>
+     *                 if all the values are present
+     * @param length number of values to convert
+     * @return the number of values stored as day 0
+     * @throws IllegalArgumentException if the buffers do not hold
+     *         {@code length} values. Nothing is written then
+     * @see #toExcelDays
+     */
+    public static int toExcelDaysInPlace (
+            ByteBuffer buffer,
+            ByteBuffer validity,
+            int length)
+    {
+        checkSizes (length, buffer, validity);
+
+        ByteBuffer io = littleEndian (buffer);
+        int ioPos = io.position();
+        int zeros = 0;
+
+        for (int i=0; i<length; i+=8)
+        {
+            int chunk = Math.min (8, length-i);
+            int bits = validity != null ? getValidityByte (validity, i) :
+                                          0xFF;
+
+            for (int j=0; j<chunk; j++)
+            {
+                int index = ioPos + (i+j)*4;
+                int excelDay = (bits & (1 << j)) != 0 ?
+                        getExcelDayFromEpochDay (io.getInt (index)) :
+                        0;
+
+                if (excelDay == 0)
+                    zeros ++;
+
+                io.putInt (index, excelDay);
+            }
+        }
+
+        return zeros;
+    }
+
+    private static int getValidityByte (ByteBuffer validity, int first)
+    {
+        return validity.get (validity.position() + first/8) & 0xFF;
+    }
+
+    private static void putValidityByte (
+            ByteBuffer validity,
+            int first,
+            int count,
+            int bits)
+    {
+        int index = validity.position() + first/8;
+
+        if (count < 8)  // Preserve the bits beyond the last value
+        {
+            int mask = (1 << count) - 1;
+            bits |= validity.get (index) & ~mask;
+        }
+
+        validity.put (index, (byte)bits);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+    DatesParseCache.java
+
+    Copyright (c) 2020, Martin Knoblauch Revuelta
+    See accompanying LICENSE
+
+    https://github.com/mkrevuelta/JIntDatesConverter
+*/
+
+package com.github.mkrevuelta.JIntDatesConverter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class is a small, bounded cache in front of
+ * {@link DatesConverter#getExcelDayFromString_YYYY_dash_MM_dash_DD
+ * DatesConverter.getExcelDayFromString_YYYY_dash_MM_dash_DD()}.
+ * <p>
+ * It pays off when the same few date strings are parsed over and
+ * over again (today, yesterday, a few settlement dates...), as
+ * it happens in logs and trade feeds.
+ * <p>
+ * The cache is a direct-mapped table: each string can only live in
+ * the slot selected by its hash code. A new string simply evicts
+ * whatever was in its slot. There are no locks. Slots are replaced
+ * atomically with immutable entries, so the cache is safe for
+ * multithread use. A hit allocates nothing.
+ * <p>
+ * Both valid and invalid strings are cached, and the results are
+ * exactly the same as those of the uncached function. The hit and
+ * miss counters tell whether the cache is worth its memory.
+ * <p>
+ * Each thread counts on a padded stripe chosen by thread id. Two
+ * threads only share a stripe when their ids collide, so a hit
+ * costs one atomic increment that is rarely contended and rarely
+ * bounces a cache line between cores. Reading the counters
+ * sums all the stripes, which is slower, and is only exact when no
+ * other thread is using the cache at the same time.
+ *
+ * @author Mart&iacute;n Knoblauch Revuelta
+ * @version 1
+ */
+public class DatesParseCache
+{
+    private static final class Entry
+    {
+        final String date;
+        final int hash;
+        final Integer excelDay;  // null if the date is invalid
+
+        Entry (String date, int hash, Integer excelDay)
+        {
+            this.date = date;
+            this.hash = hash;
+            this.excelDay = excelDay;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    /*
+     * Counter split in stripes, each one alone in its own 128 bytes
+     * (two cache lines, to defeat adjacent line prefetching too).
+     * Threads pick a stripe by id, so they rarely share one.
+     */
+    private static final class StripedCounter
+    {
+        private static final int padding = 16;  // longs per stripe
+
+        private static final int stripes;
+        static
+        {
+            int n = Integer.highestOneBit (
+                    Runtime.getRuntime().availableProcessors() * 2 - 1) * 2;
+            stripes = Math.min (n, 64);
+        }
+
+        // Leading and trailing padding keep the first and last
+        // stripes away from the array header and whatever follows
+        private final AtomicLongArray cells =
+                new AtomicLongArray ((stripes + 2) * padding);
+
+        void increment ()
+        {
+            long id = Thread.currentThread().getId();
+            int stripe = (int)(id ^ (id >>> 32)) & (stripes - 1);
+
+            cells.incrementAndGet ((stripe + 1) * padding);
+        }
+
+        long sum ()
+        {
+            long sum = 0;
+
+            for (int i=1; i<=stripes; i++)
+                sum += cells.get (i * padding);
+
+            return sum;
+        }
+
+        void reset ()
+        {
+            for (int i=1; i<=stripes; i++)
+                cells.set (i * padding, 0);
+        }
+    }
+
+    private final StripedCounter hits = new StripedCounter ();
+    private final StripedCounter misses = new StripedCounter ();
+
+    /**
+     * Constructs a cache with 64 slots, which is plenty for the
+     * typical handful of distinct dates.
+     */
+    public DatesParseCache ()
+    {
+        this (64);
+    }
+
+    /**
+     * Constructs a cache with at least the specified number of
+     * slots. The number is rounded up to a power of two.
+     *
+     * @param capacity minimum number of slots, from 1 to 2<sup>30</sup>
+     * @throws IllegalArgumentException if {@code capacity} is out
+     *         of range
+     */
+    public DatesParseCache (int capacity)
+    {
+        if (capacity < 1 || capacity > (1 << 30))
+            throw new IllegalArgumentException (
+                    "Invalid cache capacity: " + capacity);
+
+        int size = Integer.highestOneBit (capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        slots = new AtomicReferenceArray<Entry> (size);
+        mask = size - 1;
+    }
+
+    /**
+     * This function returns the same result as
+     * {@link DatesConverter#getExcelDayFromString_YYYY_dash_MM_dash_DD
+     * DatesConverter.getExcelDayFromString_YYYY_dash_MM_dash_DD()},
+     * looking it up in the cache first.
+     *
+     * @param date date string in <i>yyyy-MM-dd</i> format
+     * @param defaultValue special value to be returned if the
+     *                     parsing fails or the date is invalid
+     * @return the resulting Excel&reg; day number if the input is
+     *         a valid date, {@code defaultValue} otherwise
+     * @see DatesConverter#getExcelDayFromString_YYYY_dash_MM_dash_DD
+     */
+    public Integer getExcelDayFromString_YYYY_dash_MM_dash_DD (
+            String date,
+            Integer defaultValue)
+    {
+        if (date == null)
+            return defaultValue;
+
+        int hash = date.hashCode ();
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        Entry entry = slots.get (index);
+
+        if (    entry != null && entry.hash == hash &&
+                entry.date.equals (date))
+        {
+            hits.increment ();
+        }
+        else
+        {
+            misses.increment ();
+
+            entry = new Entry (
+                    date,
+                    hash,
+                    DatesConverter
+                        .getExcelDayFromString_YYYY_dash_MM_dash_DD (
+                            date,
+                            null));
+
+            slots.set (index, entry);
+        }
+
+        return entry.excelDay != null ? entry.excelDay : defaultValue;
+    }
+
+    /**
+     * Returns the number of slots of this cache.
+     *
+     * @return number of slots (a power of two)
+     */
+    public int getCapacity ()
+    {
+        return slots.length ();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return number of hits since construction or the last
+     *         {@link #clear clear()}
+     */
+    public long getHits ()
+    {
+        return hits.sum ();
+    }
+
+    /**
+     * Returns the number of lookups that had to parse the string.
+     *
+     * @return number of misses since construction or the last
+     *         {@link #clear clear()}
+     */
+    public long getMisses ()
+    {
+        return misses.sum ();
+    }
+
+    /**
+     * Empties the cache and resets the hit and miss counters.
+     */
+    public void clear ()
+    {
+        for (int i=0; i<slots.length(); i++)
+            slots.set (i, null);
+
+        hits.reset ();
+        misses.reset ();
+    }
+}
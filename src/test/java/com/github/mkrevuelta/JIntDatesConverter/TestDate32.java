@@ -0,0 +1,321 @@
+/*
+    TestDate32.java
+
+    Copyright (c) 2020, Martin Knoblauch Revuelta
+    See accompanying LICENSE
+
+    https://github.com/mkrevuelta/JIntDatesConverter
+*/
+
+package com.github.mkrevuelta.JIntDatesConverter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+public class TestDate32
+{
+    // Excel day, Date32 value (days since 1970-01-01)
+
+    private static final int[][] dayPairs =
+    {
+        { 1, -25567 },                    // 1900-01-01
+        { 59, -25509 },                   // 1900-02-28
+        { 61, -25508 },                   // 1900-03-01
+        { 25568, -1 },                    // 1969-12-31
+        { 25569, 0 },                     // 1970-01-01
+        { 43831, 18262 },                 // 2020-01-01
+        { 2958465, 2932896 },             // 9999-12-31
+        { Integer.MAX_VALUE, Integer.MAX_VALUE - 25569 }
+    };
+
+    @Test
+    public void doTest ()
+    {
+        // Check translation of some special dates, both ways
+
+        int[] excelDays = new int[dayPairs.length];
+        for (int i=0; i<dayPairs.length; i++)
+            excelDays[i] = dayPairs[i][0];
+
+        ByteBuffer data = ByteBuffer.allocate (dayPairs.length*4);
+        ByteBuffer validity = ByteBuffer.allocate (1);
+
+        Assert.assertEquals (0, Date32Converter.fromExcelDays (
+                                    excelDays, 0, dayPairs.length,
+                                    data, validity));
+
+        for (int i=0; i<dayPairs.length; i++)
+            Assert.assertEquals (dayPairs[i][1], getDate32 (data, i));
+
+        Assert.assertEquals ((byte)0xFF, validity.get (0));
+
+        int[] backDays = new int[dayPairs.length];
+        Assert.assertEquals (0, Date32Converter.toExcelDays (
+                                    data, validity,
+                                    backDays, 0, dayPairs.length));
+
+        Assert.assertArrayEquals (excelDays, backDays);
+
+        // Values without Date32 equivalent become nulls
+
+        int[] invalidDays = { 5, 0, 60, -1, 61, 0, 0, 0, 0, 7 };
+        data = ByteBuffer.allocate (invalidDays.length*4);
+        validity = ByteBuffer.allocate (2);
+        validity.put (1, (byte)0xF0);  // Beyond the last value
+
+        Assert.assertEquals (7, Date32Converter.fromExcelDays (
+                                    invalidDays, 0, invalidDays.length,
+                                    data, validity));
+
+        Assert.assertEquals ((byte)0x11, validity.get (0));
+        Assert.assertEquals ((byte)0xF2, validity.get (1));
+        Assert.assertEquals (0, getDate32 (data, 1));
+
+        // Nulls and out of range Date32 values become day 0
+
+        int[] date32Values =
+        {
+            -25568,                       // 1899-12-31
+            -25567,                       // 1900-01-01
+            Integer.MAX_VALUE - 25569,    // Day Integer.MAX_VALUE
+            Integer.MAX_VALUE - 25568,    // The day after
+            Integer.MIN_VALUE,
+            0                             // Flagged as null
+        };
+
+        data = ByteBuffer.allocate (date32Values.length*4);
+        for (int i=0; i<date32Values.length; i++)
+            putDate32 (data, i, date32Values[i]);
+
+        validity = ByteBuffer.allocate (1);
+        validity.put (0, (byte)0x1F);
+
+        backDays = new int[date32Values.length+2];
+        Assert.assertEquals (4, Date32Converter.toExcelDays (
+                                    data, validity,
+                                    backDays, 1, date32Values.length));
+
+        Assert.assertArrayEquals (
+                new int[] { 0, 0, 1, Integer.MAX_VALUE, 0, 0, 0, 0 },
+                backDays);
+
+        // In place conversion, honoring buffer positions
+
+        ByteBuffer buffer = ByteBuffer.allocate (4 + dayPairs.length*4);
+        for (int i=0; i<dayPairs.length; i++)
+            putDate32 (buffer, i+1, dayPairs[i][0]);
+
+        buffer.position (4);
+        validity = ByteBuffer.allocate (2);
+        validity.position (1);
+
+        Assert.assertEquals (0, Date32Converter.fromExcelDaysInPlace (
+                                    buffer, validity, dayPairs.length));
+
+        Assert.assertEquals (4, buffer.position ());
+        Assert.assertEquals (ByteOrder.BIG_ENDIAN, buffer.order ());
+        Assert.assertEquals ((byte)0x00, validity.get (0));
+        Assert.assertEquals ((byte)0xFF, validity.get (1));
+
+        for (int i=0; i<dayPairs.length; i++)
+            Assert.assertEquals (dayPairs[i][1], getDate32 (buffer, i+1));
+
+        Assert.assertEquals (0, Date32Converter.toExcelDaysInPlace (
+                                    buffer, null, dayPairs.length));
+
+        for (int i=0; i<dayPairs.length; i++)
+            Assert.assertEquals (dayPairs[i][0], getDate32 (buffer, i+1));
+
+        // Check every day in Excel dates range against the calendar
+        // date from DatesConverter, counted independently as days
+        // since 1970-01-01 (day 60 being null), and check that
+        // consecutive real days stay consecutive
+
+        final int count = 2958465;
+        excelDays = new int[count];
+        for (int i=0; i<count; i++)
+            excelDays[i] = i+1;
+
+        buffer = ByteBuffer.allocateDirect (count*4)
+                           .order (ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer ().put (excelDays);
+        validity = ByteBuffer.allocate ((count+7)/8);
+
+        Assert.assertEquals (1, Date32Converter.fromExcelDaysInPlace (
+                                    buffer, validity, count));
+
+        int previous = -25568;  // 1899-12-31, the day before day 1
+        for (int i=0; i<count; i++)
+        {
+            int excelDay = excelDays[i];
+            int epochDay = getDate32 (buffer, i);
+            boolean isPresent = (validity.get (i/8) & (1 << (i%8))) != 0;
+
+            if (excelDay == 60)  // Lotus123 bug
+            {
+                if (isPresent || epochDay != 0)
+                    Assert.fail ("Excel day 60 is not written as null");
+
+                continue;
+            }
+
+            DatesConverter.DateOnly date =
+                    DatesConverter.getDateFromExcelDay (excelDay);
+
+            int expected = daysFromCivil (date.year, date.month, date.day);
+
+            if ( ! isPresent || epochDay != expected)
+                Assert.fail ("Excel day " + excelDay + " (" + DatesConverter
+                             .getString_YYYY_dash_MM_dash_DD_FromExcelDay (
+                                 excelDay) + ") is written as " +
+                             (isPresent ? Integer.toString (epochDay) :
+                                          "null") +
+                             " instead of " + expected);
+
+            if (epochDay != previous+1)
+                Assert.fail ("Date32 gap at Excel day " + excelDay);
+
+            previous = epochDay;
+        }
+
+        backDays = new int[count];
+        Assert.assertEquals (1, Date32Converter.toExcelDaysInPlace (
+                                    buffer, validity, count));
+
+        buffer.asIntBuffer ().get (backDays);
+        backDays[59] = 60;  // Day 60 came back as 0
+        Assert.assertArrayEquals (excelDays, backDays);
+    }
+
+    @Test
+    public void doTestRejections ()
+    {
+        // Buffers too short are rejected before anything is written
+
+        final ByteBuffer buffer = ByteBuffer.allocate (12);
+        for (int i=0; i<3; i++)
+            putDate32 (buffer, i, 43831+i);
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDaysInPlace (buffer, null, 4); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.toExcelDaysInPlace (buffer, null, 4); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDaysInPlace (
+                    buffer, ByteBuffer.allocate (0), 3); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDaysInPlace (buffer, null, -1); }});
+
+        for (int i=0; i<3; i++)
+            Assert.assertEquals (43831+i, getDate32 (buffer, i));
+
+        final int[] excelDays = { 43831, 43832, 43833 };
+        final ByteBuffer data = ByteBuffer.allocate (12);
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDays (
+                    excelDays, 1, 3, data, null); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDays (
+                    excelDays, -1, 2, data, null); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDays (
+                    excelDays, 0, 3, ByteBuffer.allocate (8), null); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDays (
+                    excelDays, 0, 9, ByteBuffer.allocate (36),
+                    ByteBuffer.allocate (1)); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.toExcelDays (
+                    data, null, excelDays, 1, 3); }});
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.toExcelDays (
+                    ByteBuffer.allocate (8), null, excelDays, 0, 3); }});
+
+        Assert.assertArrayEquals (new int[] { 43831, 43832, 43833 },
+                                  excelDays);
+        Assert.assertEquals (0, getDate32 (data, 0));
+
+        // Nulls need a validity bitmap: without it, day 0 and day 60
+        // would silently become 1970-01-01
+
+        final int[] nullDays = { 43831, 0, 60 };
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDays (
+                    nullDays, 0, 3, data, null); }});
+
+        Assert.assertEquals (0, getDate32 (data, 0));
+
+        putDate32 (buffer, 2, 60);
+
+        assertRejected (new Runnable () { public void run () {
+            Date32Converter.fromExcelDaysInPlace (buffer, null, 3); }});
+
+        Assert.assertEquals (43831, getDate32 (buffer, 0));
+        Assert.assertEquals (60, getDate32 (buffer, 2));
+
+        // Without nulls, the validity bitmap can be omitted
+
+        Assert.assertEquals (0, Date32Converter.fromExcelDays (
+                                    nullDays, 0, 1, data, null));
+        Assert.assertEquals (18262, getDate32 (data, 0));
+    }
+
+    // Days since 1970-01-01 of a proleptic Gregorian date, counted
+    // in years starting on March the 1st (after Howard Hinnant)
+
+    private static int daysFromCivil (int year, int month, int day)
+    {
+        if (month <= 2)
+            year --;
+
+        int era = year / 400;  // Years here are never negative
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month-3 : month+9) + 2) / 5 +
+                        day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra/4 - yearOfEra/100 +
+                       dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static void assertRejected (Runnable conversion)
+    {
+        try
+        {
+            conversion.run ();
+        }
+        catch (IllegalArgumentException ex)
+        {
+            return;
+        }
+
+        Assert.fail ("IllegalArgumentException expected");
+    }
+
+    private static int getDate32 (ByteBuffer buffer, int index)
+    {
+        return buffer.duplicate ()
+                     .order (ByteOrder.LITTLE_ENDIAN)
+                     .getInt (index*4);
+    }
+
+    private static void putDate32 (ByteBuffer buffer, int index, int value)
+    {
+        buffer.duplicate ()
+              .order (ByteOrder.LITTLE_ENDIAN)
+              .putInt (index*4, value);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+    TestDatesParseCache.java
+
+    Copyright (c) 2020, Martin Knoblauch Revuelta
+    See accompanying LICENSE
+
+    https://github.com/mkrevuelta/JIntDatesConverter
+*/
+
+package com.github.mkrevuelta.JIntDatesConverter;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+public class TestDatesParseCache
+{
+    private static final String[] dates =
+    {
+        "1900-01-00", "1900-01-01", "1900-02-29", "1900-03-01",
+        "2020-02-31", "2020-03-02", "9999-12-31", "5881510-07-10",
+        "5881510-07-11", "1000-01-01", "foo", "", "2020-1-1",
+        "1900-01-1234567890123456789012345678901234567890"
+    };
+
+    @Test
+    public void doTest ()
+    {
+        DatesParseCache cache = new DatesParseCache (5);
+        Assert.assertEquals (8, cache.getCapacity ());
+
+        // Same results as the uncached parser, on misses and on hits
+
+        for (int round=0; round<3; round++)
+            for (int i=0; i<dates.length; i++)
+            {
+                checkSameResult (cache, dates[i], 42);
+                checkSameResult (cache, dates[i], null);
+                checkSameResult (cache, new String (dates[i]), -1);
+            }
+
+        Assert.assertEquals ((Integer)7, cache.getExcelDayFromString_YYYY_dash_MM_dash_DD (null, 7));
+
+        Assert.assertEquals (dates.length*3*3,
+                             cache.getHits () + cache.getMisses ());
+
+        // A handful of repeated dates should always hit
+
+        cache = new DatesParseCache ();
+        for (int i=0; i<1000; i++)
+            cache.getExcelDayFromString_YYYY_dash_MM_dash_DD ("2020-06-28", null);
+
+        Assert.assertEquals (1, cache.getMisses ());
+        Assert.assertEquals (999, cache.getHits ());
+
+        cache.clear ();
+        Assert.assertEquals (0, cache.getHits ());
+        Assert.assertEquals (0, cache.getMisses ());
+        Assert.assertEquals ((Integer)44010, cache.getExcelDayFromString_YYYY_dash_MM_dash_DD ("2020-06-28", null));
+        Assert.assertEquals (1, cache.getMisses ());
+
+        // Concurrent use with more dates than slots
+
+        final DatesParseCache sharedCache = new DatesParseCache (4);
+        final String[] failure = new String[1];
+        Thread[] threads = new Thread[4];
+
+        for (int t=0; t<threads.length; t++)
+        {
+            final int seed = t;
+            threads[t] = new Thread ()
+            {
+                @Override
+                public void run ()
+                {
+                    for (int i=0; i<100000; i++)
+                    {
+                        int excelDay = 43831 + (i*7 + seed) % 20;
+                        String date = DatesConverter
+                                .getString_YYYY_dash_MM_dash_DD_FromExcelDay (
+                                    excelDay);
+
+                        Integer result = sharedCache
+                                .getExcelDayFromString_YYYY_dash_MM_dash_DD (
+                                    date, null);
+
+                        if (result == null || result != excelDay)
+                            synchronized (failure)
+                            {
+                                failure[0] = date + " -> " + result;
+                            }
+                    }
+                }
+            };
+            threads[t].start ();
+        }
+
+        for (int t=0; t<threads.length; t++)
+            try
+            {
+                threads[t].join ();
+            }
+            catch (InterruptedException ex)
+            {
+                Assert.fail ("Interrupted");
+            }
+
+        synchronized (failure)
+        {
+            if (failure[0] != null)
+                Assert.fail ("Concurrent lookup failure: " + failure[0]);
+        }
+
+        Assert.assertEquals (400000, sharedCache.getHits () +
+                                     sharedCache.getMisses ());
+    }
+
+    private static void checkSameResult (
+            DatesParseCache cache,
+            String date,
+            Integer defaultValue)
+    {
+        Assert.assertEquals (
+                DatesConverter.getExcelDayFromString_YYYY_dash_MM_dash_DD (
+                    date, defaultValue),
+                cache.getExcelDayFromString_YYYY_dash_MM_dash_DD (
+                    date, defaultValue));
+    }
+}